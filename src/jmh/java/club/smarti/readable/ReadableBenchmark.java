@@ -0,0 +1,76 @@
+package club.smarti.readable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type dispatch benchmarks: the same multi-release jar is run on the baseline and on the Java 21 runtime
+ * (see 'jmh' task), so the results compare the baseline dispatch and the pattern matching one
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadableBenchmark {
+
+    private Object[] mixed;
+    private Object[] scalars;
+    private List<Object> list;
+    private StringBuilder builder;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 42);
+        map.put("ratio", 0.75);
+        map.put("name", "value");
+
+        mixed = new Object[]{Integer.class, true, (byte) 1, 'c', 2, 3L, 4.5f, 6.7, "str", new int[]{1, 2, 3},
+                new double[]{0.1, 0.2}, new Object[]{"a", 'b'}, map, Locale.US, new Object()};
+        scalars = new Object[]{1, 2L, 3.5, "str", true, 'x', 4.5f, (byte) 6};
+
+        list = new ArrayList<>();
+        for (int n = 0; n < 100; n++) {
+            list.add(n % 2 == 0 ? (Object) n : "item" + n);
+        }
+        builder = new StringBuilder(4096);
+    }
+
+    @Benchmark
+    public int mixedTypes() {
+        builder.setLength(0);
+        Readable.append(builder, mixed);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int scalars() {
+        builder.setLength(0);
+        Readable.append(builder, scalars);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int list() {
+        builder.setLength(0);
+        Readable.append(builder, list);
+        return builder.length();
+    }
+}
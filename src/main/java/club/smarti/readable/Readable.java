@@ -2,6 +2,10 @@ package club.smarti.readable;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Object to String translator (for development and debug purpose)
@@ -39,6 +43,43 @@ public class Readable {
      */
     @Contract(pure = true, value = "null, _ -> fail; _, null -> fail")
     public static void append(StringBuilder builder, Object... data) {
+        append(builder, ReadableDecimal.SHORTEST, data);
+    }
+
+    /**
+     * Convert the list of objects to human readable string with fixed precision of float and double values
+     * (e.g. for telemetry, where full precision is not needed)
+     *
+     * @param digits - number of fraction digits (0..15)
+     * @param data - list of objects (can be empty)
+     * @return the result string
+     */
+    @NotNull
+    @Contract(pure = true, value = "_, null -> fail")
+    public static String toStringFixed(int digits, Object... data) {
+        StringBuilder builder = new StringBuilder();
+        appendFixed(builder, digits, data);
+        return builder.toString();
+    }
+
+    /**
+     * Convert the list of objects to human readable string with fixed precision of float and double values
+     * and append to existing {@link StringBuilder}
+     *
+     * @param builder - the string builder to append
+     * @param digits - number of fraction digits (0..15)
+     * @param data - list of objects (can be empty)
+     */
+    @Contract(pure = true, value = "null, _, _ -> fail; _, _, null -> fail")
+    public static void appendFixed(StringBuilder builder, int digits, Object... data) {
+        if (digits < 0 || digits > ReadableDecimal.MAX_PRECISION) {
+            throw new IllegalArgumentException("Wrong number of fraction digits: " + digits);
+        }
+        append(builder, digits, data);
+    }
+
+    @Contract(pure = true, value = "null, _, _ -> fail; _, _, null -> fail")
+    private static void append(StringBuilder builder, int precision, Object[] data) {
         if (data == null) {
             throw new NullPointerException("Null args list");
         }
@@ -46,7 +87,83 @@ public class Readable {
             if (builder.length() > 0) {
                 builder.append(", ");
             }
-            ReadableBuilder.append(builder, arg);
+            ReadableBuilder.append(builder, arg, precision);
+        }
+    }
+
+    /**
+     * Convert only the difference between two objects to human readable string. Arrays, lists, sets and maps
+     * are compared item by item: the changed items are converted, the unchanged ones are only counted
+     * (e.g. "[<100 unchanged>, 100: 5 → 7, <899 unchanged>]")
+     *
+     * @param before - the previous state
+     * @param after - the current state
+     * @return the result string ("<unchanged>" if there is no difference)
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static String diff(Object before, Object after) {
+        StringBuilder builder = new StringBuilder();
+        ReadableDiff.append(builder, before, after);
+        return builder.toString();
+    }
+
+    /**
+     * Convert the list of objects to human readable string for every rate-th call of the call site only
+     * (for hot call sites, where the conversion itself is a noticeable load). The skipped calls are not
+     * converted at all, their number is added to the next converted string as "<suppressed: N>"
+     * *
+     * The key is held forever (there is one counter per key), so it must be a constant of the call site
+     * (e.g. string literal). A key built per call (e.g. concatenated string) leaks memory
+     *
+     * @param key - the call site key (e.g. string constant)
+     * @param rate - every rate-th call is converted (1 means every call)
+     * @param data - list of objects (can be empty)
+     * @return the result string or null if the call is skipped
+     */
+    @Nullable
+    @Contract(value = "null, _, _ -> fail; _, _, null -> fail")
+    public static String sampled(Object key, int rate, Object... data) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Wrong sampling rate: " + rate);
+        }
+        long skipped = ReadableSampler.sample(key, rate);
+        if (skipped == ReadableSampler.SKIP) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        append(builder, data);
+        if (skipped > 0) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append("<suppressed: ").append(skipped).append(">");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Convert the list of objects to human readable string and write it to the file (UTF-8)
+     * *
+     * Arrays and lists are streamed item by item through a bounded buffer, so the heap usage
+     * doesn't depend on their size (useful for huge arrays like long[] or double[] time series)
+     *
+     * @param file - the file to write (it's created or truncated)
+     * @param data - list of objects (can be empty)
+     * @throws IOException if the file can't be written
+     */
+    @Contract(value = "null, _ -> fail; _, null -> fail")
+    public static void dumpTo(Path file, Object... data) throws IOException {
+        if (data == null) {
+            throw new NullPointerException("Null args list");
+        }
+        try (ReadableWriter writer = new ReadableWriter(file)) {
+            for (int n = 0; n < data.length; n++) {
+                if (n > 0) {
+                    writer.append(", ");
+                }
+                writer.write(data[n]);
+            }
         }
     }
 }
\ No newline at end of file
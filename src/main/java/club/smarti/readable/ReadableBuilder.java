@@ -2,8 +2,12 @@ package club.smarti.readable;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -24,88 +28,26 @@ final class ReadableBuilder {
 
     private final static char[] HEX = "0123456789ABCDEF".toCharArray();
 
+    // Max number of copy attempts of a collection modified by another thread
+    private final static int SNAPSHOT_ATTEMPTS = 3;
+
     @Contract(pure = true)
     private ReadableBuilder() {
     }
 
     @Contract(pure = true, value = "null, _ -> fail")
     static void append(StringBuilder builder, Object data) {
+        append(builder, data, ReadableDecimal.SHORTEST);
+    }
+
+    /**
+     * @param precision - number of fraction digits of float/double values or {@link ReadableDecimal#SHORTEST}
+     */
+    @Contract(pure = true, value = "null, _, _ -> fail")
+    static void append(StringBuilder builder, Object data, int precision) {
         try {
             if (data != null) {
-                Class<?> cls = data.getClass();
-
-                if (cls == Class.class) {
-                    appendClass((Class<?>) data, builder);
-                }
-                else if (Classes.isAssignable(Boolean.class, cls)) {
-                    appendBoolean((Boolean) data, builder);
-                }
-                else if (Classes.isAssignable(Byte.class, cls)) {
-                    appendByte((Byte) data, builder);
-                }
-                else if (Classes.isAssignable(Character.class, cls)) {
-                    appendChar((Character) data, builder);
-                }
-                else if (Classes.isAssignable(Integer.class, cls)) {
-                    appendInteger((Integer) data, builder);
-                }
-                else if (Classes.isAssignable(Long.class, cls)) {
-                    appendLong((Long) data, builder);
-                }
-                else if (Classes.isAssignable(Float.class, cls)) {
-                    appendFloat((Float) data, builder);
-                }
-                else if (Classes.isAssignable(Double.class, cls)) {
-                    appendDouble((Double) data, builder);
-                }
-                else if (Classes.isAssignable(String.class, cls)) {
-                    appendString((String) data, builder);
-                }
-                else if (Classes.isAssignable(boolean[].class, cls)) {
-                    appendBooleanArray((boolean[]) data, builder);
-                }
-                else if (Classes.isAssignable(byte[].class, cls)) {
-                    appendByteArray((byte[]) data, builder);
-                }
-                else if (Classes.isAssignable(char[].class, cls)) {
-                    appendCharArray((char[]) data, builder);
-                }
-                else if (Classes.isAssignable(int[].class, cls)) {
-                    appendIntegerArray((int[]) data, builder);
-                }
-                else if (Classes.isAssignable(long[].class, cls)) {
-                    appendLongArray((long[]) data, builder);
-                }
-                else if (Classes.isAssignable(float[].class, cls)) {
-                    appendFloatArray((float[]) data, builder);
-                }
-                else if (Classes.isAssignable(double[].class, cls)) {
-                    appendDoubleArray((double[]) data, builder);
-                }
-                else if (Classes.isAssignable(Object[].class, cls)) {
-                    appendObjectArray((Object[]) data, builder);
-                }
-                else if (Classes.isAssignable(Iterable.class, cls)) {
-                    appendIterable((Iterable<?>) data, builder);
-                }
-                else if (Classes.isAssignable(Map.class, cls)) {
-                    appendMap((Map<?, ?>) data, builder);
-                }
-                else if (Classes.isAssignable(File.class, cls)) {
-                    appendFile((File) data, builder);
-                }
-                else if (Classes.isAssignable(Throwable.class, cls)) {
-                    appendThrowable((Throwable) data, builder);
-                }
-                else if (Classes.isAssignable(StackTraceElement[].class, cls)) {
-                    appendStackTrace((StackTraceElement[]) data, builder);
-                }
-                else if (Classes.isAssignable(Locale.class, cls)) {
-                    appendLocale((Locale) data, builder);
-                }
-                else {
-                    appendObject(data, builder);
-                }
+                ReadableDispatch.append(builder, data, precision);
             }
             else {
                 builder.append("<null>");
@@ -118,11 +60,45 @@ final class ReadableBuilder {
         }
     }
 
+    /**
+     * Single array item converter (the same output as the array converters produce for the item)
+     */
+    @Contract(pure = true, value = "null, _, _ -> fail; _, _, null -> fail")
+    static void appendItem(Object array, int index, StringBuilder builder) {
+        if (array instanceof Object[]) {
+            append(builder, ((Object[]) array)[index]);
+        }
+        else if (array instanceof boolean[]) {
+            builder.append(((boolean[]) array)[index]);
+        }
+        else if (array instanceof byte[]) {
+            appendByte(((byte[]) array)[index], builder);
+        }
+        else if (array instanceof char[]) {
+            appendChar(((char[]) array)[index], builder);
+        }
+        else if (array instanceof int[]) {
+            builder.append(((int[]) array)[index]);
+        }
+        else if (array instanceof long[]) {
+            builder.append(((long[]) array)[index]);
+        }
+        else if (array instanceof float[]) {
+            ReadableDecimal.appendFloat(((float[]) array)[index], builder);
+        }
+        else if (array instanceof double[]) {
+            ReadableDecimal.appendDouble(((double[]) array)[index], builder);
+        }
+        else {
+            append(builder, Array.get(array, index));
+        }
+    }
+
     /**
      * Base converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendObject(@NotNull Object data, StringBuilder builder) {
+    static void appendObject(@NotNull Object data, StringBuilder builder) {
         builder.append("<");
         builder.append(data);
         builder.append(">");
@@ -132,23 +108,23 @@ final class ReadableBuilder {
      * Class name converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendClass(@NotNull Class<?> data, StringBuilder builder) {
-        builder.append(Classes.getSimpleName(data));
+    static void appendClass(@NotNull Class<?> data, StringBuilder builder) {
+        builder.append(ReadableCache.getClassName(data));
     }
 
     /**
      * Boolean converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendBoolean(@NotNull Boolean data, StringBuilder builder) {
-        builder.append(data.toString());
+    static void appendBoolean(boolean data, StringBuilder builder) {
+        builder.append(data);
     }
 
     /**
      * Byte converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendByte(@NotNull Byte data, StringBuilder builder) {
+    static void appendByte(byte data, StringBuilder builder) {
         int num = data & 0xFF;
         builder.append("0x");
         builder.append(HEX[num >>> 4]);
@@ -159,7 +135,7 @@ final class ReadableBuilder {
      * Char converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendChar(@NotNull Character data, StringBuilder builder) {
+    static void appendChar(char data, StringBuilder builder) {
         int num = data;
         switch (data) {
             case '\b':
@@ -194,39 +170,39 @@ final class ReadableBuilder {
      * Integer converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendInteger(@NotNull Integer data, StringBuilder builder) {
-        builder.append(data.toString());
+    static void appendInteger(int data, StringBuilder builder) {
+        builder.append(data);
     }
 
     /**
      * Long converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendLong(@NotNull Long data, StringBuilder builder) {
-        builder.append(data.toString());
+    static void appendLong(long data, StringBuilder builder) {
+        builder.append(data);
     }
 
     /**
      * Float converter
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static void appendFloat(@NotNull Float data, StringBuilder builder) {
-        builder.append(data.toString());
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendFloat(@NotNull Float data, int precision, StringBuilder builder) {
+        ReadableDecimal.appendFloat(data, precision, builder);
     }
 
     /**
      * Double converter
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static void appendDouble(@NotNull Double data, StringBuilder builder) {
-        builder.append(data.toString());
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendDouble(@NotNull Double data, int precision, StringBuilder builder) {
+        ReadableDecimal.appendDouble(data, precision, builder);
     }
 
     /**
      * String converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendString(@NotNull String str, StringBuilder builder) {
+    static void appendString(@NotNull String str, StringBuilder builder) {
         builder.append("\"");
         builder.append(str);
         builder.append("\"");
@@ -236,7 +212,7 @@ final class ReadableBuilder {
      * Primitive boolean array converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendBooleanArray(boolean[] array, StringBuilder builder) {
+    static void appendBooleanArray(boolean[] array, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
@@ -252,7 +228,7 @@ final class ReadableBuilder {
      * Primitive byte array converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendByteArray(byte[] array, StringBuilder builder) {
+    static void appendByteArray(byte[] array, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
@@ -268,7 +244,7 @@ final class ReadableBuilder {
      * Primitive char array converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendCharArray(char[] array, StringBuilder builder) {
+    static void appendCharArray(char[] array, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
@@ -284,7 +260,7 @@ final class ReadableBuilder {
      * Primitive int array converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendIntegerArray(int[] array, StringBuilder builder) {
+    static void appendIntegerArray(int[] array, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
@@ -300,7 +276,7 @@ final class ReadableBuilder {
      * Primitive long array converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendLongArray(long[] array, StringBuilder builder) {
+    static void appendLongArray(long[] array, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
@@ -315,15 +291,15 @@ final class ReadableBuilder {
     /**
      * Primitive float array converter
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static void appendFloatArray(float[] array, StringBuilder builder) {
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendFloatArray(float[] array, int precision, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
             if (n > 0) {
                 builder.append(", ");
             }
-            builder.append(array[n]);
+            ReadableDecimal.appendFloat(array[n], precision, builder);
         }
         builder.append("]");
     }
@@ -331,15 +307,15 @@ final class ReadableBuilder {
     /**
      * Primitive double array converter
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static void appendDoubleArray(double[] array, StringBuilder builder) {
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendDoubleArray(double[] array, int precision, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
             if (n > 0) {
                 builder.append(", ");
             }
-            builder.append(array[n]);
+            ReadableDecimal.appendDouble(array[n], precision, builder);
         }
         builder.append("]");
     }
@@ -347,65 +323,158 @@ final class ReadableBuilder {
     /**
      * Objects array converter
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static void appendObjectArray(@NotNull Object[] array, StringBuilder builder) {
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendObjectArray(@NotNull Object[] array, int precision, StringBuilder builder) {
         builder.append("[");
 
         for (int n = 0; n < array.length; n++) {
             if (n > 0) {
                 builder.append(", ");
             }
-            append(builder, array[n]);
+            append(builder, array[n], precision);
         }
         builder.append("]");
     }
 
     /**
      * Iterable type converter (List, Set, ...)
+     * *
+     * Concurrent collections are iterated directly (their iterators are weakly consistent).
+     * If a fail-fast collection is modified by another thread, it's converted again from a snapshot.
+     * If the snapshot is not possible, the partial output is kept and marked as truncated.
+     * Any other iteration failure (e.g. a fail-fast iterator, which doesn't see the modification yet,
+     * throws NoSuchElementException) keeps the partial output and closes it with the error
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static <T> void appendIterable(@NotNull final Iterable<T> iterable, StringBuilder builder) {
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static <T> void appendIterable(@NotNull final Iterable<T> iterable, int precision, StringBuilder builder) {
+        int start = builder.length();
         builder.append("[");
 
         boolean empty = true;
-        for (T item : iterable) {
-            if (!empty) {
-                builder.append(", ");
+        try {
+            for (T item : iterable) {
+                if (!empty) {
+                    builder.append(", ");
+                }
+                append(builder, item, precision);
+                empty = false;
+            }
+        }
+        catch (ConcurrentModificationException error) {
+            Object[] snapshot = snapshot(iterable);
+            if (snapshot != null) {
+                builder.setLength(start);
+                appendObjectArray(snapshot, precision, builder);
+                return;
             }
-            append(builder, item);
-            empty = false;
+            appendTruncated(empty, builder);
+        }
+        catch (RuntimeException error) {
+            appendError(empty, error, builder);
         }
         builder.append("]");
     }
 
     /**
-     * Map converter
+     * Map converter (see {@link #appendIterable} for concurrent modifications)
      */
-    @Contract(pure = true, value = "_, null -> fail")
-    private static <K, V> void appendMap(@NotNull Map<K, V> map, StringBuilder builder) {
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static <K, V> void appendMap(@NotNull Map<K, V> map, int precision, StringBuilder builder) {
+        int start = builder.length();
         builder.append("{");
 
         boolean empty = true;
-        Set<K> keys = map.keySet();
-        for (K key : keys) {
-            if (!empty) {
-                builder.append(", ");
+        Set<Map.Entry<K, V>> entries = map.entrySet();
+        try {
+            for (Map.Entry<K, V> entry : entries) {
+                if (!empty) {
+                    builder.append(", ");
+                }
+                appendEntry(entry, precision, builder);
+                empty = false;
             }
-            append(builder, key);
-            builder.append("–");
-
-            V value = map.get(key);
-            append(builder, value);
-            empty = false;
+        }
+        catch (ConcurrentModificationException error) {
+            Object[] snapshot = snapshot(entries);
+            if (snapshot != null) {
+                builder.setLength(start);
+                builder.append("{");
+                for (int n = 0; n < snapshot.length; n++) {
+                    if (n > 0) {
+                        builder.append(", ");
+                    }
+                    appendEntry((Map.Entry<?, ?>) snapshot[n], precision, builder);
+                }
+            }
+            else {
+                appendTruncated(empty, builder);
+            }
+        }
+        catch (RuntimeException error) {
+            appendError(empty, error, builder);
         }
         builder.append("}");
     }
 
+    /**
+     * Map entry converter
+     */
+    @Contract(pure = true, value = "_, _, null -> fail")
+    private static void appendEntry(@NotNull Map.Entry<?, ?> entry, int precision, StringBuilder builder) {
+        append(builder, entry.getKey(), precision);
+        builder.append("–");
+        append(builder, entry.getValue(), precision);
+    }
+
+    /**
+     * Copy the collection items (for the case when it's modified while iterating)
+     *
+     * @return the items or null if the snapshot is not possible
+     */
+    @Nullable
+    @Contract(pure = true)
+    private static Object[] snapshot(@NotNull Iterable<?> iterable) {
+        if (iterable instanceof Collection) {
+            for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+                try {
+                    return ((Collection<?>) iterable).toArray();
+                }
+                catch (ConcurrentModificationException ignored) {
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marker of the partial output
+     */
+    @Contract(pure = true, value = "_, null -> fail")
+    static void appendTruncated(boolean empty, StringBuilder builder) {
+        if (!empty) {
+            builder.append(", ");
+        }
+        builder.append("<truncated>");
+    }
+
+    /**
+     * Marker of the partial output which is broken by the error
+     */
+    @Contract(pure = true, value = "_, null, _ -> fail; _, _, null -> fail")
+    static void appendError(boolean empty, @NotNull Throwable error, StringBuilder builder) {
+        if (!empty) {
+            builder.append(", ");
+        }
+        builder.append("<error: ");
+        builder.append(error.getMessage());
+        builder.append(">");
+    }
+
     /**
      * File/directory description
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendFile(@NotNull File file, StringBuilder builder) {
+    static void appendFile(@NotNull File file, StringBuilder builder) {
         boolean dir = file.isDirectory();
 
         builder.append('<').append(Classes.getSignature(file));
@@ -422,8 +491,8 @@ final class ReadableBuilder {
      * Exception converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendThrowable(@NotNull Throwable error, StringBuilder builder) {
-        builder.append(Classes.getSimpleName(error));
+    static void appendThrowable(@NotNull Throwable error, StringBuilder builder) {
+        builder.append(ReadableCache.getClassName(error.getClass()));
         builder.append(": ");
         builder.append(error.getMessage());
 
@@ -435,16 +504,10 @@ final class ReadableBuilder {
      * Exception stack trace converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendStackTrace(StackTraceElement[] stack, StringBuilder builder) {
+    static void appendStackTrace(StackTraceElement[] stack, StringBuilder builder) {
         for (StackTraceElement foo : stack) {
             if (foo != null) {
-                String className = foo.getClassName();
-                String classNameSimple = className.substring(className.lastIndexOf(".") + 1);
-
-                builder.append("\r\n").append(className);
-                builder.append('.').append(foo.getMethodName());
-                builder.append(" (").append(classNameSimple);
-                builder.append(':').append(foo.getLineNumber()).append(')');
+                builder.append(ReadableCache.getFrame(foo));
             }
         }
     }
@@ -453,7 +516,7 @@ final class ReadableBuilder {
      * Locale converter
      */
     @Contract(pure = true, value = "_, null -> fail")
-    private static void appendLocale(@NotNull Locale locale, StringBuilder builder) {
+    static void appendLocale(@NotNull Locale locale, StringBuilder builder) {
         builder.append(locale.getLanguage());
         builder.append("-");
         builder.append(locale.getCountry());
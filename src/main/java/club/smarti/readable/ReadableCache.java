@@ -0,0 +1,93 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import club.smarti.java.Classes;
+
+/**
+ * Cache of pre-rendered fragments for the types which are converted over and over again
+ * (the same classes and stack frames are mentioned in logs millions of times)
+ * *
+ * Class names: {@link ClassValue} keeps the fragment with the class itself, so it doesn't prevent class unloading.
+ * Stack frames: bounded map, a half of it is dropped when full (not the whole map, so with more hot frames than
+ * the bound the most of them are still found). The keys don't hold classes (a stack trace element keeps names only),
+ * so the map doesn't prevent class unloading either
+ */
+final class ReadableCache {
+
+    // Max number of cached stack frames
+    private final static int MAX_FRAMES = 4096;
+
+    private final static ClassValue<char[]> CLASS_NAMES = new ClassValue<char[]>() {
+        @Override
+        protected char[] computeValue(Class<?> type) {
+            return Classes.getSimpleName(type).toCharArray();
+        }
+    };
+
+    private final static ConcurrentHashMap<StackTraceElement, char[]> FRAMES = new ConcurrentHashMap<>();
+
+    @Contract(pure = true)
+    private ReadableCache() {
+    }
+
+    /**
+     * @return simple class name
+     */
+    @NotNull
+    @Contract(value = "null -> fail")
+    static char[] getClassName(@NotNull Class<?> cls) {
+        return CLASS_NAMES.get(cls);
+    }
+
+    /**
+     * @return stack frame line (with leading line break)
+     */
+    @NotNull
+    @Contract(value = "null -> fail")
+    static char[] getFrame(@NotNull StackTraceElement frame) {
+        char[] chars = FRAMES.get(frame);
+        if (chars == null) {
+            chars = renderFrame(frame);
+            if (FRAMES.size() >= MAX_FRAMES) {
+                evictFrames();
+            }
+            FRAMES.put(frame, chars);
+        }
+        return chars;
+    }
+
+    /**
+     * Drop every second cached frame (in the map order, which doesn't depend on the frame age)
+     */
+    private static void evictFrames() {
+        Iterator<StackTraceElement> frames = FRAMES.keySet().iterator();
+        for (int n = 0; frames.hasNext(); n++) {
+            frames.next();
+            if (n % 2 == 0) {
+                frames.remove();
+            }
+        }
+    }
+
+    @NotNull
+    @Contract(pure = true, value = "null -> fail")
+    private static char[] renderFrame(@NotNull StackTraceElement frame) {
+        String className = frame.getClassName();
+        String classNameSimple = className.substring(className.lastIndexOf(".") + 1);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("\r\n").append(className);
+        builder.append('.').append(frame.getMethodName());
+        builder.append(" (").append(classNameSimple);
+        builder.append(':').append(frame.getLineNumber()).append(')');
+
+        char[] chars = new char[builder.length()];
+        builder.getChars(0, chars.length, chars, 0);
+        return chars;
+    }
+}
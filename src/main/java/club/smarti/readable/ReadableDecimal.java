@@ -0,0 +1,587 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Float/double to decimal string converter. It writes digits directly into the builder (no temporary strings)
+ * *
+ * Shortest representation is the Schubfach algorithm by Raffaello Giulietti, the same one
+ * {@link Double#toString(double)} uses since Java 19, so the output is identical to it
+ * *
+ * Fixed precision representation rounds the value to the given number of fraction digits
+ */
+@SuppressWarnings({"WeakerAccess", "DuplicatedCode"})
+final class ReadableDecimal {
+
+    /**
+     * Precision value for the shortest representation which round-trips to the same value
+     */
+    final static int SHORTEST = -1;
+
+    /**
+     * Max number of fraction digits of the fixed precision representation
+     */
+    final static int MAX_PRECISION = 15;
+
+    // Double precision:
+    private final static int D_P = 53;
+    private final static int D_W = 11;
+    private final static int D_Q_MIN = (-1 << (D_W - 1)) - D_P + 3;
+    private final static int D_H = 17;
+    private final static long D_C_MIN = 1L << (D_P - 1);
+    private final static long D_C_TINY = 3;
+    private final static int D_BQ_MASK = (1 << D_W) - 1;
+    private final static long D_T_MASK = (1L << (D_P - 1)) - 1;
+
+    // Single precision:
+    private final static int F_P = 24;
+    private final static int F_W = 8;
+    private final static int F_Q_MIN = (-1 << (F_W - 1)) - F_P + 3;
+    private final static int F_H = 9;
+    private final static int F_C_MIN = 1 << (F_P - 1);
+    private final static int F_C_TINY = 8;
+    private final static int F_BQ_MASK = (1 << F_W) - 1;
+    private final static int F_T_MASK = (1 << (F_P - 1)) - 1;
+
+    private final static long MASK_63 = (1L << 63) - 1;
+    private final static long MASK_32 = (1L << 32) - 1;
+    private final static int MASK_28 = (1 << 28) - 1;
+
+    private final static int K_MIN = flog10pow2(D_Q_MIN);
+    private final static int K_MAX = flog10pow2((1 << (D_W - 1)) - D_P);
+
+    private final static long[] POW10 = new long[D_H + 1];
+
+    // Fixed precision: max absolute value (larger ones have the shortest representation)
+    private final static double MAX_FIXED = 1e18;
+    // Fixed precision: all the integers below are exact doubles
+    private final static double EXACT_INTEGERS = 0x1p53;
+    // Fixed precision: Veltkamp splitter of the 53-bit significand into two 26-bit halves (2^27 + 1)
+    private final static double SPLITTER = 134_217_729.0;
+
+    // 126-bit approximations of powers of 10 (pairs of higher and lower 63 bits), see g1() and g0()
+    private final static long[] G = new long[(K_MAX - K_MIN + 1) * 2];
+
+    static {
+        POW10[0] = 1;
+        for (int n = 1; n < POW10.length; n++) {
+            POW10[n] = POW10[n - 1] * 10;
+        }
+        // 10^-k = b * 2^r, where 2^125 <= b < 2^126, and g = floor(b) + 1
+        BigInteger mask = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int shift = 125 - flog2pow10(-k);
+            BigInteger g;
+            if (k <= 0) {
+                BigInteger pow = BigInteger.TEN.pow(-k);
+                g = shift >= 0 ? pow.shiftLeft(shift) : pow.shiftRight(-shift);
+            }
+            else {
+                g = BigInteger.ONE.shiftLeft(shift).divide(BigInteger.TEN.pow(k));
+            }
+            g = g.add(BigInteger.ONE);
+            G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+            G[(k - K_MIN) << 1 | 1] = g.and(mask).longValue();
+        }
+    }
+
+    @Contract(pure = true)
+    private ReadableDecimal() {
+    }
+
+    /**
+     * Double converter
+     *
+     * @param precision - number of fraction digits or {@link #SHORTEST}
+     */
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendDouble(double value, int precision, StringBuilder builder) {
+        if (precision == SHORTEST || !appendFixed(value, precision, builder)) {
+            appendDouble(value, builder);
+        }
+    }
+
+    /**
+     * Float converter
+     *
+     * @param precision - number of fraction digits or {@link #SHORTEST}
+     */
+    @Contract(pure = true, value = "_, _, null -> fail")
+    static void appendFloat(float value, int precision, StringBuilder builder) {
+        if (precision == SHORTEST || !appendFixed(value, precision, builder)) {
+            appendFloat(value, builder);
+        }
+    }
+
+    /**
+     * Shortest double representation (the same as {@link Double#toString(double)} since Java 19)
+     */
+    @Contract(pure = true, value = "_, null -> fail")
+    static void appendDouble(double value, StringBuilder builder) {
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & D_T_MASK;
+        int bq = (int) (bits >>> (D_P - 1)) & D_BQ_MASK;
+        if (bq < D_BQ_MASK) {
+            if (bits < 0) {
+                builder.append('-');
+            }
+            if (bq != 0) {
+                // Normal value
+                int mq = -D_Q_MIN + 1 - bq;
+                long c = D_C_MIN | t;
+                // Integer value
+                if (0 < mq & mq < D_P) {
+                    long f = c >> mq;
+                    if (f << mq == c) {
+                        appendDoubleChars(f, 0, builder);
+                        return;
+                    }
+                }
+                appendDouble(-mq, c, 0, builder);
+            }
+            else if (t != 0) {
+                // Subnormal value
+                if (t < D_C_TINY) {
+                    appendDouble(D_Q_MIN, 10 * t, -1, builder);
+                }
+                else {
+                    appendDouble(D_Q_MIN, t, 0, builder);
+                }
+            }
+            else {
+                builder.append("0.0");
+            }
+        }
+        else if (t != 0) {
+            builder.append("NaN");
+        }
+        else {
+            builder.append(bits > 0 ? "Infinity" : "-Infinity");
+        }
+    }
+
+    /**
+     * Shortest float representation (the same as {@link Float#toString(float)} since Java 19)
+     */
+    @Contract(pure = true, value = "_, null -> fail")
+    static void appendFloat(float value, StringBuilder builder) {
+        int bits = Float.floatToRawIntBits(value);
+        int t = bits & F_T_MASK;
+        int bq = (bits >>> (F_P - 1)) & F_BQ_MASK;
+        if (bq < F_BQ_MASK) {
+            if (bits < 0) {
+                builder.append('-');
+            }
+            if (bq != 0) {
+                // Normal value
+                int mq = -F_Q_MIN + 1 - bq;
+                int c = F_C_MIN | t;
+                // Integer value
+                if (0 < mq & mq < F_P) {
+                    int f = c >> mq;
+                    if (f << mq == c) {
+                        appendFloatChars(f, 0, builder);
+                        return;
+                    }
+                }
+                appendFloat(-mq, c, 0, builder);
+            }
+            else if (t != 0) {
+                // Subnormal value
+                if (t < F_C_TINY) {
+                    appendFloat(F_Q_MIN, 10 * t, -1, builder);
+                }
+                else {
+                    appendFloat(F_Q_MIN, t, 0, builder);
+                }
+            }
+            else {
+                builder.append("0.0");
+            }
+        }
+        else if (t != 0) {
+            builder.append("NaN");
+        }
+        else {
+            builder.append(bits > 0 ? "Infinity" : "-Infinity");
+        }
+    }
+
+    /**
+     * Fixed precision representation (half-up rounding of the exact value)
+     *
+     * @return false if the value can't be represented (NaN, infinity or too large)
+     */
+    @Contract(pure = true, value = "_, _, null -> fail")
+    private static boolean appendFixed(double value, int precision, StringBuilder builder) {
+        double abs = Math.abs(value);
+        if (!(abs < MAX_FIXED)) {
+            return false;
+        }
+        long pow = POW10[precision];
+        double scaled = abs * pow;
+        if (!(scaled < EXACT_INTEGERS)) {
+            // Not every integer is a double here, round by BigDecimal
+            builder.append(new BigDecimal(value).setScale(precision, RoundingMode.HALF_UP).toPlainString());
+            return true;
+        }
+        long num = roundScaled(abs, pow, scaled);
+        if (value < 0 && num != 0) {
+            builder.append('-');
+        }
+        builder.append(num / pow);
+        if (precision > 0) {
+            builder.append('.');
+            long fraction = num % pow;
+            for (long div = pow / 10; div > 0; div /= 10) {
+                appendDigit((int) (fraction / div % 10), builder);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Half-up rounding of the exact product abs * pow (scaled is the rounded product, it's less than 2^53)
+     * *
+     * The rounding error of the product is found exactly by Dekker's two-product algorithm, so the rounding
+     * direction is right even if the rounded product is on the other side of .5 (e.g. 2.675 * 100 = 267.5,
+     * but the exact product is 267.4999...)
+     */
+    @Contract(pure = true)
+    private static long roundScaled(double abs, long pow, double scaled) {
+        double a = pow;
+        double aHigh = SPLITTER * a - (SPLITTER * a - a);
+        double aLow = a - aHigh;
+        double bHigh = SPLITTER * abs - (SPLITTER * abs - abs);
+        double bLow = abs - bHigh;
+        double error = ((aHigh * bHigh - scaled) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+
+        // Exact value is floor + fraction + error, the fraction is exact for the values less than 2^53
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        // The sign of the sum is exact (a rounded sum is zero only if the exact one is)
+        return (long) floor + ((fraction - 0.5) + error >= 0 ? 1 : 0);
+    }
+
+    /**
+     * Double value c * 2^q (the digits are shifted by dk for tiny subnormal values)
+     */
+    private static void appendDouble(int q, long c, int dk, StringBuilder builder) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != D_C_MIN | q == D_Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = g1(k);
+        long g0 = g0(k);
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                appendDoubleChars(upin ? sp10 : tp10, k, builder);
+                return;
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            appendDoubleChars(uin ? s : t, k + dk, builder);
+            return;
+        }
+        long cmp = vb - (s + t << 1);
+        appendDoubleChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, builder);
+    }
+
+    /**
+     * Float value c * 2^q (the digits are shifted by dk for tiny subnormal values)
+     */
+    private static void appendFloat(int q, int c, int dk, StringBuilder builder) {
+        int out = c & 0x1;
+        long cb = (long) c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != F_C_MIN | q == F_Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }
+        else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+
+        long g = g1(k) + 1;
+
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100) {
+            int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                appendFloatChars(upin ? sp10 : tp10, k, builder);
+                return;
+            }
+        }
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            appendFloatChars(uin ? s : t, k + dk, builder);
+            return;
+        }
+        int cmp = vb - (s + t << 1);
+        appendFloatChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, builder);
+    }
+
+    /**
+     * Decimal f * 10^e of a double value
+     */
+    private static void appendDoubleChars(long f, int e, StringBuilder builder) {
+        int len = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        if (f >= POW10[len]) {
+            len += 1;
+        }
+        // Normalize to 17 digits: h (1 digit), m (8 digits), l (8 digits)
+        f *= POW10[D_H - len];
+        e += len;
+
+        long hm = multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        int l = (int) (f - 100_000_000L * hm);
+        int h = (int) (hm * 1_441_151_881L >>> 57);
+        int m = (int) (hm - 100_000_000 * h);
+
+        if (0 < e && e <= 7) {
+            appendPlain(h, m, e, builder);
+        }
+        else if (-3 < e && e <= 0) {
+            appendPlainSmall(h, m, e, builder);
+        }
+        else {
+            appendDigit(h, builder);
+            builder.append('.');
+            append8Digits(m, builder);
+        }
+        if (l != 0) {
+            append8Digits(l, builder);
+        }
+        removeTrailingZeroes(builder);
+        if (e <= -3 || 7 < e) {
+            appendExponent(e - 1, builder);
+        }
+    }
+
+    /**
+     * Decimal f * 10^e of a float value
+     */
+    private static void appendFloatChars(int f, int e, StringBuilder builder) {
+        int len = flog10pow2(Integer.SIZE - Integer.numberOfLeadingZeros(f));
+        if (f >= POW10[len]) {
+            len += 1;
+        }
+        // Normalize to 9 digits: h (1 digit), l (8 digits)
+        f *= (int) POW10[F_H - len];
+        e += len;
+
+        int h = (int) (f * 1_441_151_881L >>> 57);
+        int l = f - 100_000_000 * h;
+
+        if (0 < e && e <= 7) {
+            appendPlain(h, l, e, builder);
+        }
+        else if (-3 < e && e <= 0) {
+            appendPlainSmall(h, l, e, builder);
+        }
+        else {
+            appendDigit(h, builder);
+            builder.append('.');
+            append8Digits(l, builder);
+        }
+        removeTrailingZeroes(builder);
+        if (e <= -3 || 7 < e) {
+            appendExponent(e - 1, builder);
+        }
+    }
+
+    /**
+     * Digits h.m * 10^e in plain format, 0 < e <= 7
+     */
+    private static void appendPlain(int h, int m, int e, StringBuilder builder) {
+        appendDigit(h, builder);
+        int y = y(m);
+        int t;
+        int i = 1;
+        for (; i < e; ++i) {
+            t = 10 * y;
+            appendDigit(t >>> 28, builder);
+            y = t & MASK_28;
+        }
+        builder.append('.');
+        for (; i <= 8; ++i) {
+            t = 10 * y;
+            appendDigit(t >>> 28, builder);
+            y = t & MASK_28;
+        }
+    }
+
+    /**
+     * Digits h.m * 10^e in plain format with leading zeros, -3 < e <= 0
+     */
+    private static void appendPlainSmall(int h, int m, int e, StringBuilder builder) {
+        builder.append("0.");
+        for (; e < 0; ++e) {
+            appendDigit(0, builder);
+        }
+        appendDigit(h, builder);
+        append8Digits(m, builder);
+    }
+
+    private static void append8Digits(int m, StringBuilder builder) {
+        int y = y(m);
+        for (int i = 0; i < 8; ++i) {
+            int t = 10 * y;
+            appendDigit(t >>> 28, builder);
+            y = t & MASK_28;
+        }
+    }
+
+    /**
+     * Remove trailing zeros, but keep one after the decimal point
+     */
+    private static void removeTrailingZeroes(StringBuilder builder) {
+        int end = builder.length();
+        while (builder.charAt(end - 1) == '0') {
+            --end;
+        }
+        if (builder.charAt(end - 1) == '.') {
+            ++end;
+        }
+        builder.setLength(end);
+    }
+
+    private static void appendExponent(int e, StringBuilder builder) {
+        builder.append('E');
+        if (e < 0) {
+            builder.append('-');
+            e = -e;
+        }
+        if (e < 10) {
+            appendDigit(e, builder);
+            return;
+        }
+        int d;
+        if (e >= 100) {
+            d = e * 1_311 >>> 17;
+            appendDigit(d, builder);
+            e -= 100 * d;
+        }
+        d = e * 103 >>> 10;
+        appendDigit(d, builder);
+        appendDigit(e - 10 * d, builder);
+    }
+
+    private static void appendDigit(int digit, StringBuilder builder) {
+        builder.append((char) ('0' + digit));
+    }
+
+    /**
+     * Fixed point 8 digits fraction: a * 2^28 / 10^8
+     */
+    private static int y(int a) {
+        return (int) (multiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    /**
+     * Rounding odd multiplication of the 126-bit g1:g0 by cp
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Rounding odd multiplication of the 64-bit g by cp
+     */
+    private static int rop(long g, long cp) {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    private static long g1(int k) {
+        return G[(k - K_MIN) << 1];
+    }
+
+    private static long g0(int k) {
+        return G[(k - K_MIN) << 1 | 1];
+    }
+
+    /**
+     * floor(log10(2^e))
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * floor(log10(3/4 * 2^e))
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /**
+     * floor(log2(10^e))
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * High 64 bits of the 128-bit product (the same as Math.multiplyHigh of Java 9)
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+}
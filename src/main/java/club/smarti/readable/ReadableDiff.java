@@ -0,0 +1,370 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Inner diff parser. It walks two objects in parallel and converts only the changed parts
+ * (the values are converted by {@link ReadableBuilder})
+ * *
+ * Code convention:
+ * [<2 unchanged>, 2: A → B]  array, list: run of unchanged items, changed item by index
+ * [-2: A], [+2: B]           array, list: removed/added item at the end
+ * {"key"–A → B, +"new"–C}    map: changed, added (+) and removed (-) entries, then the number of unchanged ones
+ * [+A, -B, <2 unchanged>]    set: added and removed items, then the number of unchanged ones
+ * A → B                      any other changed object
+ * <unchanged>                nothing changed
+ * *
+ * Set members are matched by equals()/hashCode() of the set itself, so arrays (and collections holding them)
+ * in sets are matched by identity: equal by content, but different instances are reported as removed and added
+ */
+@SuppressWarnings({"WeakerAccess", "DuplicatedCode"})
+final class ReadableDiff {
+
+    @Contract(pure = true)
+    private ReadableDiff() {
+    }
+
+    @Contract(pure = true, value = "null, _, _ -> fail")
+    static void append(StringBuilder builder, Object before, Object after) {
+        int start = builder.length();
+        try {
+            if (!appendChanges(builder, before, after)) {
+                builder.setLength(start);
+                builder.append("<unchanged>");
+            }
+        }
+        catch (Throwable error) {
+            builder.append("<error: ");
+            builder.append(error.getMessage());
+            builder.append(">");
+        }
+    }
+
+    /**
+     * Converter of the changes
+     *
+     * @return false if there are no changes (the output must be dropped then)
+     */
+    @Contract(value = "null, _, _ -> fail")
+    private static boolean appendChanges(StringBuilder builder, Object before, Object after) {
+        if (before != null && after != null) {
+            if (before.getClass().isArray() && (before.getClass() == after.getClass() || before instanceof Object[] && after instanceof Object[])) {
+                return appendArray(before, after, builder);
+            }
+            else if (before instanceof List && after instanceof List) {
+                return appendList((List<?>) before, (List<?>) after, builder);
+            }
+            else if (before instanceof Set && after instanceof Set) {
+                return appendSet((Set<?>) before, (Set<?>) after, builder);
+            }
+            else if (before instanceof Map && after instanceof Map) {
+                return appendMap((Map<?, ?>) before, (Map<?, ?>) after, builder);
+            }
+        }
+        if (Objects.deepEquals(before, after)) {
+            return false;
+        }
+        ReadableBuilder.append(builder, before);
+        builder.append(" → ");
+        ReadableBuilder.append(builder, after);
+        return true;
+    }
+
+    /**
+     * Arrays (of the same primitive type or both of objects)
+     */
+    @Contract(value = "_, _, null -> fail")
+    private static boolean appendArray(@NotNull Object before, @NotNull Object after, StringBuilder builder) {
+        int beforeLength = Array.getLength(before);
+        int afterLength = Array.getLength(after);
+        int common = Math.min(beforeLength, afterLength);
+
+        builder.append("[");
+        int open = builder.length();
+
+        boolean changed = false;
+        int index = 0;
+        int unchanged = 0;
+        while (index < common) {
+            int mismatch = mismatch(before, after, index, common);
+            unchanged += mismatch - index;
+            if (mismatch == common) {
+                break;
+            }
+            // The nested item may turn out to be equal (e.g. a list of arrays), then its output is dropped
+            int mark = builder.length();
+            appendUnchanged(unchanged, open, builder);
+            appendSeparator(open, builder);
+            builder.append(mismatch).append(": ");
+            boolean itemChanged = true;
+            if (before instanceof Object[]) {
+                itemChanged = appendChanges(builder, ((Object[]) before)[mismatch], ((Object[]) after)[mismatch]);
+            }
+            else {
+                ReadableBuilder.appendItem(before, mismatch, builder);
+                builder.append(" → ");
+                ReadableBuilder.appendItem(after, mismatch, builder);
+            }
+            if (itemChanged) {
+                unchanged = 0;
+                changed = true;
+            }
+            else {
+                builder.setLength(mark);
+                unchanged++;
+            }
+            index = mismatch + 1;
+        }
+        appendUnchanged(unchanged, open, builder);
+        for (int n = common; n < beforeLength; n++) {
+            appendSeparator(open, builder);
+            builder.append('-').append(n).append(": ");
+            ReadableBuilder.appendItem(before, n, builder);
+            changed = true;
+        }
+        for (int n = common; n < afterLength; n++) {
+            appendSeparator(open, builder);
+            builder.append('+').append(n).append(": ");
+            ReadableBuilder.appendItem(after, n, builder);
+            changed = true;
+        }
+        builder.append("]");
+        return changed;
+    }
+
+    /**
+     * Lists (walked by iterators, so linked lists are fine too)
+     */
+    @Contract(value = "_, _, null -> fail")
+    private static boolean appendList(@NotNull List<?> before, @NotNull List<?> after, StringBuilder builder) {
+        builder.append("[");
+        int open = builder.length();
+
+        boolean changed = false;
+        Iterator<?> beforeItems = before.iterator();
+        Iterator<?> afterItems = after.iterator();
+        int index = 0;
+        int unchanged = 0;
+        while (beforeItems.hasNext() && afterItems.hasNext()) {
+            Object beforeItem = beforeItems.next();
+            Object afterItem = afterItems.next();
+            if (Objects.deepEquals(beforeItem, afterItem)) {
+                unchanged++;
+            }
+            else {
+                // The nested item may turn out to be equal (e.g. an array), then its output is dropped
+                int mark = builder.length();
+                appendUnchanged(unchanged, open, builder);
+                appendSeparator(open, builder);
+                builder.append(index).append(": ");
+                if (appendChanges(builder, beforeItem, afterItem)) {
+                    unchanged = 0;
+                    changed = true;
+                }
+                else {
+                    builder.setLength(mark);
+                    unchanged++;
+                }
+            }
+            index++;
+        }
+        appendUnchanged(unchanged, open, builder);
+
+        for (; beforeItems.hasNext(); index++) {
+            appendSeparator(open, builder);
+            builder.append('-').append(index).append(": ");
+            ReadableBuilder.append(builder, beforeItems.next());
+            changed = true;
+        }
+        for (; afterItems.hasNext(); index++) {
+            appendSeparator(open, builder);
+            builder.append('+').append(index).append(": ");
+            ReadableBuilder.append(builder, afterItems.next());
+            changed = true;
+        }
+        builder.append("]");
+        return changed;
+    }
+
+    /**
+     * Sets (membership changes only, by the set's own contains())
+     */
+    @Contract(value = "_, _, null -> fail")
+    private static boolean appendSet(@NotNull Set<?> before, @NotNull Set<?> after, StringBuilder builder) {
+        builder.append("[");
+        int open = builder.length();
+
+        int unchanged = 0;
+        for (Object item : after) {
+            if (before.contains(item)) {
+                unchanged++;
+            }
+            else {
+                appendSeparator(open, builder);
+                builder.append('+');
+                ReadableBuilder.append(builder, item);
+            }
+        }
+        for (Object item : before) {
+            if (!after.contains(item)) {
+                appendSeparator(open, builder);
+                builder.append('-');
+                ReadableBuilder.append(builder, item);
+            }
+        }
+        boolean changed = builder.length() > open;
+        appendUnchanged(unchanged, open, builder);
+        builder.append("]");
+        return changed;
+    }
+
+    /**
+     * Maps (changed values are compared recursively)
+     */
+    @Contract(value = "_, _, null -> fail")
+    private static boolean appendMap(@NotNull Map<?, ?> before, @NotNull Map<?, ?> after, StringBuilder builder) {
+        builder.append("{");
+        int open = builder.length();
+
+        int unchanged = 0;
+        for (Map.Entry<?, ?> entry : after.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if (!before.containsKey(key)) {
+                appendSeparator(open, builder);
+                builder.append('+');
+                ReadableBuilder.append(builder, key);
+                builder.append("–");
+                ReadableBuilder.append(builder, value);
+            }
+            else {
+                Object beforeValue = before.get(key);
+                if (Objects.deepEquals(beforeValue, value)) {
+                    unchanged++;
+                }
+                else {
+                    // The nested value may turn out to be equal (e.g. an array), then its output is dropped
+                    int mark = builder.length();
+                    appendSeparator(open, builder);
+                    ReadableBuilder.append(builder, key);
+                    builder.append("–");
+                    if (!appendChanges(builder, beforeValue, value)) {
+                        builder.setLength(mark);
+                        unchanged++;
+                    }
+                }
+            }
+        }
+        for (Map.Entry<?, ?> entry : before.entrySet()) {
+            if (!after.containsKey(entry.getKey())) {
+                appendSeparator(open, builder);
+                builder.append('-');
+                ReadableBuilder.append(builder, entry.getKey());
+                builder.append("–");
+                ReadableBuilder.append(builder, entry.getValue());
+            }
+        }
+        boolean changed = builder.length() > open;
+        appendUnchanged(unchanged, open, builder);
+        builder.append("}");
+        return changed;
+    }
+
+    /**
+     * Summary of unchanged items
+     */
+    @Contract(value = "_, _, null -> fail")
+    private static void appendUnchanged(int count, int open, StringBuilder builder) {
+        if (count > 0) {
+            appendSeparator(open, builder);
+            builder.append('<').append(count).append(" unchanged>");
+        }
+    }
+
+    @Contract(value = "_, null -> fail")
+    private static void appendSeparator(int open, StringBuilder builder) {
+        if (builder.length() > open) {
+            builder.append(", ");
+        }
+    }
+
+    /**
+     * @return index of the first different item in [from, to) range or 'to' if all of them are equal
+     */
+    @Contract(pure = true)
+    private static int mismatch(@NotNull Object before, @NotNull Object after, int from, int to) {
+        int n = from;
+        if (before instanceof Object[]) {
+            Object[] x = (Object[]) before;
+            Object[] y = (Object[]) after;
+            while (n < to && Objects.deepEquals(x[n], y[n])) {
+                n++;
+            }
+        }
+        else if (before instanceof boolean[]) {
+            boolean[] x = (boolean[]) before;
+            boolean[] y = (boolean[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof byte[]) {
+            byte[] x = (byte[]) before;
+            byte[] y = (byte[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof char[]) {
+            char[] x = (char[]) before;
+            char[] y = (char[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof short[]) {
+            short[] x = (short[]) before;
+            short[] y = (short[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof int[]) {
+            int[] x = (int[]) before;
+            int[] y = (int[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof long[]) {
+            long[] x = (long[]) before;
+            long[] y = (long[]) after;
+            while (n < to && x[n] == y[n]) {
+                n++;
+            }
+        }
+        else if (before instanceof float[]) {
+            float[] x = (float[]) before;
+            float[] y = (float[]) after;
+            while (n < to && Float.floatToIntBits(x[n]) == Float.floatToIntBits(y[n])) {
+                n++;
+            }
+        }
+        else if (before instanceof double[]) {
+            double[] x = (double[]) before;
+            double[] y = (double[]) after;
+            while (n < to && Double.doubleToLongBits(x[n]) == Double.doubleToLongBits(y[n])) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
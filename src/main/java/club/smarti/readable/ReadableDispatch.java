@@ -0,0 +1,101 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+
+import club.smarti.java.Classes;
+
+/**
+ * Type dispatch of {@link ReadableBuilder}: it selects the converter for the object
+ * *
+ * Multi-release JAR: this is the baseline variant, Java 21+ runtimes use the pattern matching
+ * variant from src/main/java21 (the output must be the same for the types both of them handle)
+ */
+final class ReadableDispatch {
+
+    @Contract(pure = true)
+    private ReadableDispatch() {
+    }
+
+    @Contract(pure = true, value = "null, _, _ -> fail; _, null, _ -> fail")
+    static void append(StringBuilder builder, @NotNull Object data, int precision) {
+        Class<?> cls = data.getClass();
+
+        if (cls == Class.class) {
+            ReadableBuilder.appendClass((Class<?>) data, builder);
+        }
+        else if (Classes.isAssignable(Boolean.class, cls)) {
+            ReadableBuilder.appendBoolean((Boolean) data, builder);
+        }
+        else if (Classes.isAssignable(Byte.class, cls)) {
+            ReadableBuilder.appendByte((Byte) data, builder);
+        }
+        else if (Classes.isAssignable(Character.class, cls)) {
+            ReadableBuilder.appendChar((Character) data, builder);
+        }
+        else if (Classes.isAssignable(Integer.class, cls)) {
+            ReadableBuilder.appendInteger((Integer) data, builder);
+        }
+        else if (Classes.isAssignable(Long.class, cls)) {
+            ReadableBuilder.appendLong((Long) data, builder);
+        }
+        else if (Classes.isAssignable(Float.class, cls)) {
+            ReadableBuilder.appendFloat((Float) data, precision, builder);
+        }
+        else if (Classes.isAssignable(Double.class, cls)) {
+            ReadableBuilder.appendDouble((Double) data, precision, builder);
+        }
+        else if (Classes.isAssignable(String.class, cls)) {
+            ReadableBuilder.appendString((String) data, builder);
+        }
+        else if (Classes.isAssignable(boolean[].class, cls)) {
+            ReadableBuilder.appendBooleanArray((boolean[]) data, builder);
+        }
+        else if (Classes.isAssignable(byte[].class, cls)) {
+            ReadableBuilder.appendByteArray((byte[]) data, builder);
+        }
+        else if (Classes.isAssignable(char[].class, cls)) {
+            ReadableBuilder.appendCharArray((char[]) data, builder);
+        }
+        else if (Classes.isAssignable(int[].class, cls)) {
+            ReadableBuilder.appendIntegerArray((int[]) data, builder);
+        }
+        else if (Classes.isAssignable(long[].class, cls)) {
+            ReadableBuilder.appendLongArray((long[]) data, builder);
+        }
+        else if (Classes.isAssignable(float[].class, cls)) {
+            ReadableBuilder.appendFloatArray((float[]) data, precision, builder);
+        }
+        else if (Classes.isAssignable(double[].class, cls)) {
+            ReadableBuilder.appendDoubleArray((double[]) data, precision, builder);
+        }
+        else if (Classes.isAssignable(Object[].class, cls)) {
+            ReadableBuilder.appendObjectArray((Object[]) data, precision, builder);
+        }
+        else if (Classes.isAssignable(Iterable.class, cls)) {
+            ReadableBuilder.appendIterable((Iterable<?>) data, precision, builder);
+        }
+        else if (Classes.isAssignable(Map.class, cls)) {
+            ReadableBuilder.appendMap((Map<?, ?>) data, precision, builder);
+        }
+        else if (Classes.isAssignable(File.class, cls)) {
+            ReadableBuilder.appendFile((File) data, builder);
+        }
+        else if (Classes.isAssignable(Throwable.class, cls)) {
+            ReadableBuilder.appendThrowable((Throwable) data, builder);
+        }
+        else if (Classes.isAssignable(StackTraceElement[].class, cls)) {
+            ReadableBuilder.appendStackTrace((StackTraceElement[]) data, builder);
+        }
+        else if (Classes.isAssignable(Locale.class, cls)) {
+            ReadableBuilder.appendLocale((Locale) data, builder);
+        }
+        else {
+            ReadableBuilder.appendObject(data, builder);
+        }
+    }
+}
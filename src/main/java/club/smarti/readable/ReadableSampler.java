@@ -0,0 +1,56 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free call counters for sampled conversion (one counter per call site key)
+ * *
+ * The counters are never removed: the keys are expected to be constants of the call sites
+ */
+final class ReadableSampler {
+
+    /**
+     * Result of {@link #sample} for the call which must be skipped
+     */
+    final static long SKIP = -1;
+
+    private final static ConcurrentHashMap<Object, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    @Contract(pure = true)
+    private ReadableSampler() {
+    }
+
+    /**
+     * Register the call
+     *
+     * @param key - call site key
+     * @param rate - every rate-th call is sampled (1 means every call)
+     * @return {@link #SKIP} if the call is not sampled, otherwise the number of calls skipped since the last sampled one
+     */
+    @Contract(value = "null, _ -> fail")
+    static long sample(@NotNull Object key, int rate) {
+        Counter counter = COUNTERS.get(key);
+        if (counter == null) {
+            Counter created = new Counter();
+            counter = COUNTERS.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        if (counter.calls.getAndIncrement() % rate != 0) {
+            counter.skipped.incrementAndGet();
+            return SKIP;
+        }
+        return counter.skipped.getAndSet(0);
+    }
+
+    private final static class Counter {
+
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+    }
+}
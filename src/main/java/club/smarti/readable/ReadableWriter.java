@@ -0,0 +1,160 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+
+/**
+ * Streaming output to a file (UTF-8)
+ * *
+ * Arrays and iterables are converted item by item, the text is flushed through a bounded direct buffer
+ * to the file channel as soon as the chunk is full. So the heap usage depends on the size of the largest
+ * item only, not on the size of the whole data
+ */
+final class ReadableWriter implements Closeable {
+
+    private final static int CHUNK_SIZE = 16 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private final StringBuilder builder;
+
+    ReadableWriter(@NotNull Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        builder = new StringBuilder(CHUNK_SIZE * 2);
+    }
+
+    /**
+     * Append separator or any other raw text
+     */
+    @Contract(value = "null -> fail")
+    void append(@NotNull String text) throws IOException {
+        builder.append(text);
+        flush(false);
+    }
+
+    /**
+     * Convert the object and write it (the same output as {@link ReadableBuilder#append}, except an iterable
+     * modified concurrently: its already written items can't be converted again from a snapshot,
+     * so the output is marked as truncated)
+     */
+    void write(Object data) throws IOException {
+        if (isArray(data)) {
+            builder.append("[");
+
+            int length = Array.getLength(data);
+            for (int n = 0; n < length; n++) {
+                if (n > 0) {
+                    builder.append(", ");
+                }
+                ReadableBuilder.appendItem(data, n, builder);
+                flush(false);
+            }
+            builder.append("]");
+        }
+        else if (data instanceof Iterable) {
+            builder.append("[");
+            boolean empty = true;
+            try {
+                for (Object item : (Iterable<?>) data) {
+                    if (!empty) {
+                        builder.append(", ");
+                    }
+                    ReadableBuilder.append(builder, item);
+                    flush(false);
+                    empty = false;
+                }
+                builder.append("]");
+            }
+            catch (ConcurrentModificationException error) {
+                // Already written items can't be converted again from a snapshot
+                ReadableBuilder.appendTruncated(empty, builder);
+                builder.append("]");
+            }
+            catch (RuntimeException error) {
+                ReadableBuilder.appendError(empty, error, builder);
+                builder.append("]");
+            }
+        }
+        else {
+            ReadableBuilder.append(builder, data);
+        }
+        flush(false);
+    }
+
+    /**
+     * @return true for the arrays {@link ReadableDispatch} converts item by item (other arrays are plain objects)
+     */
+    @Contract(pure = true)
+    private static boolean isArray(Object data) {
+        return data instanceof Object[]
+                || data instanceof boolean[]
+                || data instanceof byte[]
+                || data instanceof char[]
+                || data instanceof int[]
+                || data instanceof long[]
+                || data instanceof float[]
+                || data instanceof double[];
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush(true);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Encode the collected text into the direct buffer and write it to the channel
+     *
+     * @param end - true for the last call (all the text must be written)
+     */
+    private void flush(boolean end) throws IOException {
+        if (!end && builder.length() < CHUNK_SIZE) {
+            return;
+        }
+        CharBuffer chars = CharBuffer.wrap(builder);
+        while (encoder.encode(chars, bytes, end).isOverflow()) {
+            drain();
+        }
+        if (end) {
+            CoderResult result;
+            do {
+                result = encoder.flush(bytes);
+                drain();
+            }
+            while (result.isOverflow());
+        }
+        // Unfinished surrogate pair (if any) stays for the next chunk
+        builder.delete(0, chars.position());
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,52 @@
+package club.smarti.readable;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Type dispatch of {@link ReadableBuilder}: it selects the converter for the object
+ * *
+ * Multi-release JAR: this is the Java 21+ variant (type switch), see the baseline one in src/main/java.
+ * The order of the cases is the same as the baseline has. Records are plain objects (their own toString()
+ * is used, it may hide some components, e.g. passwords, and reflection can't tell it from the implicit one)
+ */
+final class ReadableDispatch {
+
+    @Contract(pure = true)
+    private ReadableDispatch() {
+    }
+
+    @Contract(pure = true, value = "null, _, _ -> fail; _, null, _ -> fail")
+    static void append(StringBuilder builder, @NotNull Object data, int precision) {
+        switch (data) {
+            case Class<?> cls -> ReadableBuilder.appendClass(cls, builder);
+            case Boolean value -> ReadableBuilder.appendBoolean(value, builder);
+            case Byte value -> ReadableBuilder.appendByte(value, builder);
+            case Character value -> ReadableBuilder.appendChar(value, builder);
+            case Integer value -> ReadableBuilder.appendInteger(value, builder);
+            case Long value -> ReadableBuilder.appendLong(value, builder);
+            case Float value -> ReadableBuilder.appendFloat(value, precision, builder);
+            case Double value -> ReadableBuilder.appendDouble(value, precision, builder);
+            case String value -> ReadableBuilder.appendString(value, builder);
+            case boolean[] array -> ReadableBuilder.appendBooleanArray(array, builder);
+            case byte[] array -> ReadableBuilder.appendByteArray(array, builder);
+            case char[] array -> ReadableBuilder.appendCharArray(array, builder);
+            case int[] array -> ReadableBuilder.appendIntegerArray(array, builder);
+            case long[] array -> ReadableBuilder.appendLongArray(array, builder);
+            case float[] array -> ReadableBuilder.appendFloatArray(array, precision, builder);
+            case double[] array -> ReadableBuilder.appendDoubleArray(array, precision, builder);
+            // StackTraceElement[] is Object[] as well, so the baseline never reaches its converter either
+            case Object[] array -> ReadableBuilder.appendObjectArray(array, precision, builder);
+            case Iterable<?> iterable -> ReadableBuilder.appendIterable(iterable, precision, builder);
+            case Map<?, ?> map -> ReadableBuilder.appendMap(map, precision, builder);
+            case File file -> ReadableBuilder.appendFile(file, builder);
+            case Throwable error -> ReadableBuilder.appendThrowable(error, builder);
+            case Locale locale -> ReadableBuilder.appendLocale(locale, builder);
+            default -> ReadableBuilder.appendObject(data, builder);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import club.smarti.readable.Readable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets of the converters: bytes allocated per call into a presized builder (the output itself is not counted)
+ */
+public class TestAllocation {
+
+    private final static int WARMUP_CALLS = 20_000;
+    private final static int CALLS = 10_000;
+    // Bytes allocated by the measurement itself (allocation counter calls), not by the converters
+    private final static long MEASUREMENT_ALLOWANCE = 1024;
+
+    private final StringBuilder builder = new StringBuilder(64 * 1024);
+
+    @Test
+    public void testAllocation_Primitives() {
+        assertBudget(0, true);
+        assertBudget(0, (byte) -1);
+        assertBudget(0, 'a');
+        assertBudget(0, 'я');
+        assertBudget(0, '\n');
+        assertBudget(0, Integer.MIN_VALUE);
+        assertBudget(0, Long.MAX_VALUE);
+        assertBudget(0, -1.2f);
+        assertBudget(0, 0.3333333333333333);
+        assertBudget(0, 1.0E-300);
+    }
+
+    @Test
+    public void testAllocation_PrimitiveArrays() {
+        assertBudget(0, (Object) new boolean[]{true, false});
+        assertBudget(0, (Object) new byte[]{0, 1, -1});
+        assertBudget(0, (Object) new char[]{' ', 'a', 'я'});
+        assertBudget(0, (Object) new int[]{0, 1, -2, Integer.MAX_VALUE});
+        assertBudget(0, (Object) new long[]{0, 1L, -2L, Long.MIN_VALUE});
+        assertBudget(0, (Object) new float[]{0, 1.5f, -2f, Float.MIN_VALUE});
+        assertBudget(0, (Object) new double[]{0.0, 9.999999999999, Double.MAX_VALUE, Double.NaN});
+    }
+
+    @Test
+    public void testAllocation_FixedPrecision() {
+        Object[] args = new Object[]{new double[]{0.5, -1.25, 1e20}, 0.3333f};
+        assertBudget(0, () -> Readable.appendFixed(builder(), 2, args));
+    }
+
+    @Test
+    public void testAllocation_Objects() {
+        assertBudget(0, "String");
+        assertBudget(0, String.class);
+        assertBudget(0, int[][].class);
+        assertBudget(0, Locale.US);
+        assertBudget(0, (Object) new String[]{"A1", "B2", "C3"});
+        assertBudget(0, (Object) new Object[]{1, 'b', "C"});
+
+        // Own toString() of the object, signature and absolute path of the file
+        assertBudget(512, new Object());
+        assertBudget(1024, new File("src/test/resources/TextFile.txt"));
+    }
+
+    @Test
+    public void testAllocation_Throwables() {
+        Exception error = new IllegalStateException("Broken");
+        StackTraceElement[] stack = error.getStackTrace();
+
+        // Clone of the stack trace by getStackTrace() (the frames are cached)
+        assertBudget(16 + 8L * stack.length, error);
+        // StackTraceElement[] is Object[]: toString() of every frame
+        assertBudget(1024L * stack.length, (Object) stack);
+    }
+
+    @Test
+    public void testAllocation_Collections() {
+        List<Object> list = new ArrayList<>();
+        list.add(1);
+        list.add("B");
+        list.add(new int[]{3});
+
+        Map<Object, Object> map = new HashMap<>();
+        map.put(1, "A");
+        map.put("B", 2.5);
+
+        // Iterators only
+        assertBudget(64, list);
+        assertBudget(64, map);
+    }
+
+    private StringBuilder builder() {
+        builder.setLength(0);
+        return builder;
+    }
+
+    private void assertBudget(long bytes, Object data) {
+        Object[] args = new Object[]{data};
+        assertBudget(bytes, () -> Readable.append(builder(), args));
+    }
+
+    private void assertBudget(long bytes, Runnable call) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Allocation counters are not supported");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(), "Allocation counters are not supported");
+
+        for (int n = 0; n < WARMUP_CALLS; n++) {
+            call.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(thread);
+        for (int n = 0; n < CALLS; n++) {
+            call.run();
+        }
+        // The total is compared, so even a few bytes per call don't vanish in the integer division
+        long allocated = threads.getThreadAllocatedBytes(thread) - start;
+        long budget = bytes * CALLS + MEASUREMENT_ALLOWANCE;
+        assertTrue(allocated <= budget, builder + ": " + allocated + " bytes per " + CALLS + " calls, budget " + budget);
+    }
+}
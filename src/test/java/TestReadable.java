@@ -1,17 +1,29 @@
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import club.smarti.readable.Readable;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("ConstantConditions")
@@ -187,6 +199,41 @@ public class TestReadable {
                         "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat. Duis aute irure dolor in reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur. Excepteur sint occaecat cupidatat non proident, sunt in culpa qui officia deserunt mollit anim id est laborum."));
     }
 
+    @Test
+    public void testToString_Decimals() {
+        assertEquals("NaN", Readable.toString(Double.NaN));
+        assertEquals("-Infinity", Readable.toString(Double.NEGATIVE_INFINITY));
+        assertEquals("-0.0", Readable.toString(-0.0));
+        assertEquals("1.0E7", Readable.toString(1e7));
+        assertEquals("1234567.0", Readable.toString(1234567.0));
+        assertEquals("0.001", Readable.toString(0.001));
+        assertEquals("1.0E-4", Readable.toString(0.0001));
+        assertEquals("4.9E-324", Readable.toString(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", Readable.toString(Double.MAX_VALUE));
+        assertEquals("1.4E-45", Readable.toString(Float.MIN_VALUE));
+        assertEquals("3.4028235E38", Readable.toString(Float.MAX_VALUE));
+        // Shortest representation (the same as Java 19+ on any runtime)
+        assertEquals("[0.002, 2.0E23, 8.41E21, 2.82879384806159E17]", Readable.toString((Object) new double[]{2e-3, 2e23, 8.41e21, 2.82879384806159E17}));
+        assertEquals("8.589974E9", Readable.toString(8.589974E9f));
+
+        assertEquals("0.333", Readable.toStringFixed(3, 0.3333333333333333));
+        assertEquals("-1.20", Readable.toStringFixed(2, -1.2f));
+        assertEquals("2", Readable.toStringFixed(0, 1.5));
+        assertEquals("0.00", Readable.toStringFixed(2, -0.001));
+        assertEquals("[0.5, 100.0, NaN]", Readable.toStringFixed(1, (Object) new double[]{0.5, 99.96, Double.NaN}));
+        assertEquals("[1, 1.2]", Readable.toStringFixed(1, Arrays.asList(1, 1.23f)));
+        assertEquals("1.0E20", Readable.toStringFixed(2, 1e20));
+
+        // Rounding of the exact value (2.675 is 2.67499999... as a double)
+        assertEquals("2.67", Readable.toStringFixed(2, 2.675));
+        assertEquals("1.00", Readable.toStringFixed(2, 1.005));
+        assertEquals("-0.13", Readable.toStringFixed(2, -0.125));
+        // Scaled value above 2^53
+        assertEquals("999.999999999999886", Readable.toStringFixed(15, 999.9999999999999));
+        assertEquals("-123456789.123456791043282", Readable.toStringFixed(15, -123456789.123456789));
+        assertThrows(IllegalArgumentException.class, () -> Readable.toStringFixed(-1, 0.0));
+    }
+
     @SuppressWarnings("RedundantCast")
     @Test
     public void testToString_Arrays() {
@@ -293,6 +340,58 @@ public class TestReadable {
         assertEquals("{\"first\"–\"S1\", \"second\"–\"S2\"}", Readable.toString(hashmapStrStr));
     }
 
+    @Test
+    public void testToString_ConcurrentModification() {
+        // Fail-fast list: retry with a snapshot
+        List<Object> list = new ArrayList<>();
+        list.add(1);
+        list.add(new Mutator(() -> list.add(4)));
+        list.add(3);
+        assertEquals("[1, <mutator>, 3, 4]", Readable.toString(list));
+
+        // Plain iterable (no snapshot): the partial output is kept
+        List<Object> source = new ArrayList<>();
+        source.add(1);
+        source.add(new Mutator(() -> source.add(3)));
+        source.add(2);
+        Iterable<Object> iterable = source::iterator;
+        assertEquals("[1, <mutator>, <truncated>]", Readable.toString(iterable));
+
+        // Fail-fast map: retry with a snapshot
+        Map<Integer, Object> map = new HashMap<>();
+        map.put(0, new Mutator(() -> map.put(2, "C")));
+        map.put(1, "B");
+        assertEquals("{0–<mutator>, 1–\"B\", 2–\"C\"}", Readable.toString(map));
+    }
+
+    @Test
+    public void testToString_BrokenIteration() {
+        // Iterator failure: the partial output is kept and closed
+        Iterable<Object> iterable = () -> broken(Arrays.<Object>asList(1, 2));
+        assertEquals("[1, 2, <error: Broken>], 3", Readable.toString(iterable, 3));
+        assertEquals("[<error: Broken>]", Readable.toString((Iterable<Object>) () -> broken(new ArrayList<>())));
+
+        Map<Integer, String> source = new HashMap<>();
+        source.put(1, "A");
+        Map<Integer, String> map = new AbstractMap<Integer, String>() {
+            @Override
+            public Set<Entry<Integer, String>> entrySet() {
+                return new AbstractSet<Entry<Integer, String>>() {
+                    @Override
+                    public Iterator<Entry<Integer, String>> iterator() {
+                        return broken(new ArrayList<>(source.entrySet()));
+                    }
+
+                    @Override
+                    public int size() {
+                        return source.size();
+                    }
+                };
+            }
+        };
+        assertEquals("{1–\"A\", <error: Broken>}, 3", Readable.toString(map, 3));
+    }
+
     @Test
     public void testToString_Files() {
         File file = new File("src/test/resources/EmptyFile.txt");
@@ -307,6 +406,12 @@ public class TestReadable {
     @Test
     public void testToString_Throwable() {
         assertDoesNotThrow(() -> Readable.toString(new Exception("Error message")));
+
+        // Cached frames:
+        Exception error = new Exception("Error message");
+        String str = Readable.toString(error);
+        assertTrue(str.contains("\r\nTestReadable.testToString_Throwable (TestReadable:"));
+        assertEquals(str, Readable.toString(error));
     }
 
     @Test
@@ -325,4 +430,163 @@ public class TestReadable {
         locale = new Locale("ru", "RU");
         assertEquals("ru-RU", Readable.toString(locale));
     }
+
+    @Test
+    public void testDiff() {
+        assertEquals("<unchanged>", Readable.diff(null, null));
+        assertEquals("<unchanged>", Readable.diff(1, 1));
+        assertEquals("1 → 2", Readable.diff(1, 2));
+        assertEquals("<null> → \"A\"", Readable.diff(null, "A"));
+        assertEquals("[1] → [1, 2]", Readable.diff(new int[]{1}, Arrays.asList(1, 2)));
+
+        // Arrays:
+        int[] intBefore = new int[1000];
+        int[] intAfter = intBefore.clone();
+        assertEquals("<unchanged>", Readable.diff(intBefore, intAfter));
+        intAfter[100] = 5;
+        intAfter[500] = 7;
+        assertEquals("[<100 unchanged>, 100: 0 → 5, <399 unchanged>, 500: 0 → 7, <499 unchanged>]", Readable.diff(intBefore, intAfter));
+        assertEquals("[<2 unchanged>, -2: 3]", Readable.diff(new long[]{1, 2, 3}, new long[]{1, 2}));
+        assertEquals("[0: 0.5 → NaN, +1: 4.0]", Readable.diff(new double[]{0.5}, new double[]{Double.NaN, 4}));
+        assertEquals("[0: 0x00 → 0xFF]", Readable.diff(new byte[]{0}, new byte[]{-1}));
+        assertEquals("[<1 unchanged>, 1: [0: 3 → 4]]", Readable.diff(new int[][]{{1}, {3}}, new int[][]{{1}, {4}}));
+        // Nested items which are equal by content, but not by equals()
+        assertEquals("<unchanged>", Readable.diff(new Object[]{Arrays.asList(new int[]{1})}, new Object[]{Arrays.asList(new int[]{1})}));
+        assertEquals("[<2 unchanged>, 2: 3 → 4]",
+                Readable.diff(new Object[]{1, Arrays.asList(new int[]{2}), 3}, new Object[]{1, Arrays.asList(new int[]{2}), 4}));
+
+        // Lists:
+        assertEquals("[<1 unchanged>, 1: \"b\" → \"x\", <1 unchanged>, +3: \"d\"]",
+                Readable.diff(Arrays.asList("a", "b", "c"), Arrays.asList("a", "x", "c", "d")));
+        assertEquals("[0: [<1 unchanged>, 1: 2 → 3]]",
+                Readable.diff(Arrays.asList(new int[]{1, 2}), Arrays.asList(new int[]{1, 3})));
+        // Nested items which are equal by content, but not by equals()
+        assertEquals("<unchanged>", Readable.diff(Arrays.asList(Arrays.asList(new int[]{1})), Arrays.asList(Arrays.asList(new int[]{1}))));
+        assertEquals("[<2 unchanged>, 2: 3 → 4]",
+                Readable.diff(Arrays.asList(1, new int[]{2}, 3), Arrays.asList(1, new int[]{2}, 4)));
+
+        // Sets and maps:
+        assertEquals("[+4, -1, <2 unchanged>]", Readable.diff(new HashSet<>(Arrays.asList(1, 2, 3)), new HashSet<>(Arrays.asList(2, 3, 4))));
+        // Set members are matched by equals(), so arrays by identity
+        int[] setItem = new int[]{1};
+        assertEquals("<unchanged>", Readable.diff(new HashSet<>(Arrays.asList(setItem)), new HashSet<>(Arrays.asList(setItem))));
+        assertEquals("[+[1], -[1]]", Readable.diff(new HashSet<>(Arrays.asList(new int[]{1})), new HashSet<>(Arrays.asList(new int[]{1}))));
+
+        Map<String, Object> mapBefore = new HashMap<>();
+        mapBefore.put("a", 1);
+        mapBefore.put("b", 2);
+        mapBefore.put("c", 3);
+        Map<String, Object> mapAfter = new HashMap<>(mapBefore);
+        assertEquals("<unchanged>", Readable.diff(mapBefore, mapAfter));
+        mapAfter.put("b", 5);
+        mapAfter.put("d", 4);
+        mapAfter.remove("c");
+        assertEquals("{\"b\"–2 → 5, +\"d\"–4, -\"c\"–3, <1 unchanged>}", Readable.diff(mapBefore, mapAfter));
+
+        // Nested values which are equal by content, but not by equals()
+        Map<String, Map<String, int[]>> nestedBefore = new HashMap<>();
+        nestedBefore.put("a", new HashMap<>());
+        nestedBefore.get("a").put("x", new int[]{1});
+        Map<String, Map<String, int[]>> nestedAfter = new HashMap<>();
+        nestedAfter.put("a", new HashMap<>());
+        nestedAfter.get("a").put("x", new int[]{1});
+        assertEquals("<unchanged>", Readable.diff(nestedBefore, nestedAfter));
+        nestedAfter.put("b", new HashMap<>());
+        assertEquals("{+\"b\"–{}, <1 unchanged>}", Readable.diff(nestedBefore, nestedAfter));
+    }
+
+    @Test
+    public void testSampled() {
+        assertEquals("1", Readable.sampled("every", 1, 1));
+        assertEquals("2", Readable.sampled("every", 1, 2));
+
+        assertEquals("0", Readable.sampled("third", 3, 0));
+        assertNull(Readable.sampled("third", 3, 1));
+        assertNull(Readable.sampled("third", 3, 2));
+        assertEquals("3, <suppressed: 2>", Readable.sampled("third", 3, 3));
+        assertNull(Readable.sampled("third", 3, 4));
+        assertNull(Readable.sampled("third", 3, 5));
+        assertEquals("<suppressed: 2>", Readable.sampled("third", 3));
+
+        assertEquals("\"other\"", Readable.sampled("other", 3, "other"));
+        assertThrows(IllegalArgumentException.class, () -> Readable.sampled("zero", 0, 1));
+    }
+
+    @Test
+    public void testDumpTo() throws IOException {
+        long[] longArray = new long[100_000];
+        for (int n = 0; n < longArray.length; n++) {
+            longArray[n] = n * 1_000_003L - 50_000_000L;
+        }
+        List<String> strList = new ArrayList<>();
+        for (int n = 0; n < 10_000; n++) {
+            strList.add("Русский 中國 \uD83D\uDE00 " + n);
+        }
+        Object[] data = new Object[]{longArray, new double[]{0.5, -1.2}, new byte[]{0, -1}, "ぁ", strList, null};
+
+        Path file = Files.createTempFile("readable", ".txt");
+        try {
+            Readable.dumpTo(file);
+            assertEquals("", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+            Readable.dumpTo(file, data);
+            assertEquals(Readable.toString(data), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+            // Not supported arrays are plain objects, the same as Readable.toString() does
+            short[] shortArray = new short[]{1, 2};
+            Readable.dumpTo(file, (Object) shortArray);
+            assertEquals(Readable.toString((Object) shortArray), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+            // Broken iterator
+            Iterable<Object> iterable = () -> broken(Arrays.<Object>asList(1, 2));
+            Readable.dumpTo(file, iterable, 3);
+            assertEquals(Readable.toString(iterable, 3), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Iterator which fails after the items instead of finishing (like a fail-fast iterator,
+     * which doesn't see the modification of another thread yet)
+     */
+    private static <T> Iterator<T> broken(List<T> items) {
+        Iterator<T> iterator = items.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException("Broken");
+                }
+                return iterator.next();
+            }
+        };
+    }
+
+    /**
+     * Modifies the container on the first conversion (like another thread does)
+     */
+    private static class Mutator {
+
+        private Runnable action;
+
+        Mutator(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public String toString() {
+            if (action != null) {
+                action.run();
+                action = null;
+            }
+            return "mutator";
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import club.smarti.readable.Readable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestReadableRecords {
+
+    record Point(int x, int y) {
+    }
+
+    record Credentials(String user, String password) {
+        @Override
+        public String toString() {
+            return "Credentials[user=" + user + ", password=***]";
+        }
+    }
+
+    record Login(String user, String password) {
+        @Override
+        public final String toString() {
+            return "Login[user=" + user + ", password=***]";
+        }
+    }
+
+    @Test
+    public void testToString_Record() {
+        assertEquals("<Point[x=1, y=2]>", Readable.toString(new Point(1, 2)));
+        assertEquals("[<Point[x=1, y=2]>]", Readable.toString(Arrays.asList(new Point(1, 2))));
+    }
+
+    @Test
+    public void testToString_RecordToString() {
+        // The own toString() of the record is kept (it hides the password)
+        assertEquals("<Credentials[user=bob, password=***]>", Readable.toString(new Credentials("bob", "secret")));
+        // Final one as well (it has the same flags as the implicit one)
+        assertEquals("<Login[user=bob, password=***]>", Readable.toString(new Login("bob", "hunter2")));
+    }
+}